@@ -0,0 +1,29 @@
+package com.denkitronik.auth.config;
+
+import com.denkitronik.auth.service.WarmUpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica el estado del calentamiento en Actuator (/actuator/health) con el nombre "warmUp". Mientras el calentamiento
+ * se está ejecutando, el estado es OUT_OF_SERVICE; al terminar, es UP junto con el resultado de cada fase. Este
+ * indicador forma parte del grupo de readiness (ver application.properties).
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private WarmUpService warmUpService; // Servicio que ejecuta el calentamiento
+
+    /**
+     * Este método se llama cada vez que se consulta el estado de salud de la aplicación.
+     * @return El estado del calentamiento junto con sus detalles
+     */
+    @Override
+    public Health health() {
+        Health.Builder builder = warmUpService.isCompleted() ? Health.up() : Health.outOfService();
+        return builder.withDetails(warmUpService.getDetails()).build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.denkitronik.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de configuración de la fase de calentamiento (warm-up) que se ejecuta al arrancar la aplicación,
+ * antes de que la sonda de readiness indique que la instancia está lista para recibir tráfico.
+ * Se configuran en application.properties con el prefijo "auth.warmup".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true; // Activa o desactiva la fase de calentamiento
+
+    private Duration maxDuration = Duration.ofSeconds(30); // Tiempo máximo que puede durar el calentamiento completo
+
+    private int jwtIterations = 5000; // Número de tokens JWT que se firman y verifican con JwtService
+
+    private int httpIterations = 200; // Número de solicitudes sintéticas que atraviesan JwtAuthFilter
+
+    private int bcryptIterations = 5; // Número de contraseñas que se codifican y verifican con BCrypt
+
+    private boolean fillConnectionPool = true; // Espera a que Hikari abra las conexiones del pool antes de recibir tráfico
+
+    private String user; // Usuario dedicado con el que se firman las solicitudes autenticadas del calentamiento
+
+    private Resource userSnapshot; // Archivo con los usuarios más activos (un nombre de usuario por línea)
+
+    private int preloadLimit = 100; // Número máximo de usuarios del snapshot que se precargan
+
+}
@@ -0,0 +1,84 @@
+package com.denkitronik.auth.controller;
+
+import com.denkitronik.auth.entity.UserPage;
+import com.denkitronik.auth.service.UserAdminService;
+import com.denkitronik.auth.service.UserAdminService.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Esta clase controla las acciones de administración sobre los usuarios: el listado paginado y la exportación
+ * completa para auditorías. Todos los métodos están protegidos para que solo los usuarios con el rol "ROLE_ADMIN"
+ * puedan acceder a ellos.
+ */
+@RestController
+@RequestMapping("/auth/admin")
+public class AdminUserController {
+
+    private UserAdminService service; // Servicio que lista y exporta los usuarios
+
+    /**
+     * Este es el constructor de la clase AdminUserController. Se utiliza para inyectar las dependencias de la clase.
+     * @param service Es el servicio UserAdminService que se utiliza para listar y exportar los usuarios
+     */
+    @Autowired
+    public AdminUserController(UserAdminService service) {
+        this.service = service;
+    }
+
+    /**
+     * Este método maneja las solicitudes GET a "/auth/admin/users" y devuelve una página de usuarios usando
+     * paginación por clave (keyset). Para obtener la siguiente página se envía en "after" el valor "next" de la
+     * página anterior.
+     * @param sort Es el campo por el que se ordena: "id" (por defecto) o "name"
+     * @param after Es la clave del último usuario de la página anterior (opcional)
+     * @param size Es el número de usuarios por página (por defecto 50, máximo 500)
+     * @return La página de usuarios junto con la clave de la siguiente página
+     */
+    @GetMapping("/users")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public UserPage listUsers(@RequestParam(defaultValue = "id") String sort,
+                              @RequestParam(required = false) String after,
+                              @RequestParam(defaultValue = "50") int size) {
+        return service.listUsers(sort, after, size);
+    }
+
+    /**
+     * Este método maneja las solicitudes GET a "/auth/admin/users/export" y escribe todos los usuarios en la
+     * respuesta a medida que se leen de la base de datos, sin cargarlos todos en memoria.
+     * @param format Es el formato de exportación: "ndjson" (por defecto) o "csv"
+     * @param response Es la respuesta HTTP donde se escriben los usuarios
+     * @throws IOException Si se produce un error al escribir la respuesta
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = service.parseFormat(format); // Se valida antes de abrir el writer de la respuesta
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.getExtension() + "\"");
+        service.exportUsers(exportFormat, response.getWriter());
+    }
+
+    /**
+     * Este método convierte los parámetros inválidos (campo de ordenación, clave o formato) en una respuesta 400.
+     * El mensaje es fijo (no incluye el valor recibido) y se devuelve siempre como texto plano.
+     * @param e Es la excepción lanzada por el servicio
+     * @return Una respuesta 400 con el mensaje de error
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidParameter(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.denkitronik.auth.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Objeto de Transferencia de Datos) que representa una página del listado de usuarios con paginación por clave
+ * (keyset). El campo next contiene la clave que se debe enviar en el parámetro "after" para obtener la siguiente
+ * página, o null si no hay más usuarios.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+
+    private List<UserSummary> users;
+    private String next;
+
+}
@@ -0,0 +1,30 @@
+package com.denkitronik.auth.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Objeto de Transferencia de Datos) utilizado para listar y exportar usuarios desde los puntos de acceso de
+ * administración. A diferencia de UserInfo, no incluye la contraseña del usuario.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummary {
+
+    private int id;
+    private String name;
+    private String email;
+    private String roles;
+
+    /**
+     * Este método convierte una entidad UserInfo en un UserSummary, descartando la contraseña.
+     * @param userInfo Es la entidad UserInfo que se va a convertir
+     * @return El UserSummary con los datos públicos del usuario
+     */
+    public static UserSummary from(UserInfo userInfo) {
+        return new UserSummary(userInfo.getId(), userInfo.getName(), userInfo.getEmail(), userInfo.getRoles());
+    }
+
+}
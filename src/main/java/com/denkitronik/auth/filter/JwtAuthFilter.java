@@ -3,6 +3,7 @@ package com.denkitronik.auth.filter;
 
 import com.denkitronik.auth.service.JwtService;
 import com.denkitronik.auth.service.UserInfoService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -58,7 +59,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String username = null;
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
+            try {
+                username = jwtService.extractUsername(token);
+            } catch (JwtException e) {
+                // El token expiró, su firma no es válida o está mal formado: respondemos 401 directamente en lugar
+                // de dejar que la excepción salga del filtro.
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
         }
 
         // Aquí estamos verificando si tenemos un nombre de usuario y si no hay autenticación en curso en el sistema.
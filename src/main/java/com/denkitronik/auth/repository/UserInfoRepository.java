@@ -1,8 +1,10 @@
 package com.denkitronik.auth.repository;
 import com.denkitronik.auth.entity.UserInfo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,4 +15,15 @@ import java.util.Optional;
 @Repository
 public interface UserInfoRepository extends JpaRepository<UserInfo, Integer> {
     Optional<UserInfo> findByName(String username);
+
+    // Paginación por clave (keyset): en lugar de usar OFFSET, se buscan los usuarios cuya clave es mayor que la
+    // última de la página anterior, aprovechando los índices de id (clave primaria) y name (único).
+    List<UserInfo> findByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+    List<UserInfo> findByNameGreaterThanOrderByNameAsc(String name, Pageable pageable);
+
+    // El nombre es nullable: los usuarios sin nombre se recorren por id antes que los usuarios con nombre.
+    List<UserInfo> findByNameIsNullAndIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+    List<UserInfo> findByNameIsNotNullOrderByNameAsc(Pageable pageable);
 }
@@ -0,0 +1,238 @@
+package com.denkitronik.auth.service;
+
+import com.denkitronik.auth.entity.UserInfo;
+import com.denkitronik.auth.entity.UserPage;
+import com.denkitronik.auth.entity.UserSummary;
+import com.denkitronik.auth.repository.UserInfoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase UserAdminService permite a los administradores listar y exportar los usuarios registrados. El listado usa
+ * paginación por clave (keyset) y la exportación recorre la tabla con un cursor JDBC, escribiendo cada usuario a
+ * medida que se lee, de modo que nunca se carga la tabla completa en memoria.
+ */
+@Service
+public class UserAdminService {
+
+    public static final int MAX_PAGE_SIZE = 500; // Tamaño máximo de página permitido en el listado
+
+    private static final String NULL_NAME_CURSOR = "null:"; // Prefijo de la clave para usuarios sin nombre
+    private static final String NAME_CURSOR = "name:"; // Prefijo de la clave para usuarios con nombre
+
+    // Consulta de exportación: no incluye la contraseña y se ordena por la clave primaria.
+    private static final String EXPORT_QUERY = "SELECT id, name, email, roles FROM user_info ORDER BY id";
+
+    /**
+     * Formatos de exportación disponibles, con el tipo de contenido y la extensión del archivo descargado.
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private UserInfoRepository repository; // repository to access database
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Se usa para recorrer la tabla con un cursor durante la exportación
+
+    @Autowired
+    private ObjectMapper objectMapper; // Se usa para escribir cada usuario como una línea JSON
+
+    @Value("${auth.admin.export-fetch-size:500}")
+    private int exportFetchSize; // Número de filas que el cursor trae de la base de datos en cada viaje
+
+    /**
+     * Este método devuelve una página de usuarios ordenados por id o por nombre, empezando después de la clave
+     * indicada. Se consulta un usuario más de los pedidos para saber si existe una página siguiente. Al ordenar por
+     * nombre, los usuarios sin nombre (name es nullable) van primero, ordenados por id, y después el resto por
+     * nombre; la clave indica en qué tramo continuar ("null:&lt;id&gt;" o "name:&lt;nombre&gt;").
+     * @param sort Es el campo por el que se ordena: "id" o "name"
+     * @param after Es la clave del último usuario de la página anterior, o null para la primera página
+     * @param size Es el número de usuarios por página (entre 1 y MAX_PAGE_SIZE)
+     * @return La página de usuarios junto con la clave de la siguiente página
+     * @throws IllegalArgumentException Si el campo de ordenación o la clave no son válidos
+     */
+    @Transactional(readOnly = true)
+    public UserPage listUsers(String sort, String after, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable limit = Pageable.ofSize(pageSize + 1);
+        List<UserSummary> users;
+        if ("id".equals(sort)) {
+            int afterId = after == null ? 0 : parseId(after);
+            users = repository.findByIdGreaterThanOrderByIdAsc(afterId, limit).stream().map(UserSummary::from).toList();
+        } else if ("name".equals(sort)) {
+            users = listByName(after, pageSize + 1);
+        } else {
+            throw new IllegalArgumentException("Invalid sort field");
+        }
+        if (users.size() <= pageSize) {
+            return new UserPage(users, null);
+        }
+        users = users.subList(0, pageSize);
+        UserSummary last = users.get(pageSize - 1);
+        String next;
+        if ("id".equals(sort)) {
+            next = String.valueOf(last.getId());
+        } else {
+            next = last.getName() == null ? NULL_NAME_CURSOR + last.getId() : NAME_CURSOR + last.getName();
+        }
+        return new UserPage(users, next);
+    }
+
+    /**
+     * Este método obtiene hasta limit usuarios ordenados por nombre después de la clave indicada: primero los usuarios
+     * sin nombre (por id) y, cuando se acaban, los usuarios con nombre (por nombre, que es único).
+     * @param after Es la clave del último usuario de la página anterior, o null para la primera página
+     * @param limit Es el número máximo de usuarios a obtener
+     * @return Los usuarios encontrados
+     * @throws IllegalArgumentException Si la clave no es válida
+     */
+    private List<UserSummary> listByName(String after, int limit) {
+        List<UserInfo> users = new ArrayList<>();
+        if (after != null && after.startsWith(NAME_CURSOR)) {
+            users.addAll(repository.findByNameGreaterThanOrderByNameAsc(after.substring(NAME_CURSOR.length()),
+                    Pageable.ofSize(limit)));
+        } else {
+            int afterId;
+            if (after == null) {
+                afterId = 0;
+            } else if (after.startsWith(NULL_NAME_CURSOR)) {
+                afterId = parseId(after.substring(NULL_NAME_CURSOR.length()));
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            users.addAll(repository.findByNameIsNullAndIdGreaterThanOrderByIdAsc(afterId, Pageable.ofSize(limit)));
+            if (users.size() < limit) {
+                users.addAll(repository.findByNameIsNotNullOrderByNameAsc(Pageable.ofSize(limit - users.size())));
+            }
+        }
+        return users.stream().map(UserSummary::from).toList();
+    }
+
+    /**
+     * Este método convierte el formato recibido en la solicitud ("ndjson" o "csv") en un ExportFormat. Se llama antes
+     * de empezar a escribir la respuesta, para poder devolver un error 400 si el formato no es válido.
+     * @param format Es el formato recibido en la solicitud
+     * @return El formato de exportación correspondiente
+     * @throws IllegalArgumentException Si el formato no es válido
+     */
+    public ExportFormat parseFormat(String format) {
+        for (ExportFormat exportFormat : ExportFormat.values()) {
+            if (exportFormat.getExtension().equals(format)) {
+                return exportFormat;
+            }
+        }
+        throw new IllegalArgumentException("Invalid export format");
+    }
+
+    /**
+     * Este método exporta todos los usuarios en formato NDJSON (una línea JSON por usuario) o CSV. Las filas se
+     * leen con un cursor JDBC de solo avance con un tamaño de lectura fijo y se escriben de inmediato en el writer.
+     * La transacción es necesaria porque PostgreSQL solo usa cursores cuando el autocommit está desactivado.
+     * @param format Es el formato de exportación
+     * @param writer Es el writer de la respuesta donde se escriben los usuarios
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(ExportFormat format, Writer writer) {
+        boolean csv = format == ExportFormat.CSV;
+        try {
+            if (csv) {
+                writer.write("id,name,email,roles\n");
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(exportFetchSize);
+                return statement;
+            }, resultSet -> {
+                UserSummary user = new UserSummary(resultSet.getInt("id"), resultSet.getString("name"),
+                        resultSet.getString("email"), resultSet.getString("roles"));
+                try {
+                    writer.write(csv ? toCsv(user) : objectMapper.writeValueAsString(user));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Por ejemplo, si el cliente cierra la conexión
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Este método convierte la clave recibida en un id numérico.
+     * @param after Es la clave recibida en la solicitud
+     * @return El id correspondiente
+     * @throws IllegalArgumentException Si la clave no es un número
+     */
+    private int parseId(String after) {
+        try {
+            return Integer.parseInt(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Este método convierte un usuario en una línea CSV, escapando los campos que contienen comas, comillas o
+     * saltos de línea (por ejemplo, los roles "ROLE_USER,ROLE_ADMIN").
+     * @param user Es el usuario que se va a convertir
+     * @return La línea CSV sin el salto de línea final
+     */
+    private static String toCsv(UserSummary user) {
+        return user.getId() + "," + csvField(user.getName()) + "," + csvField(user.getEmail()) + ","
+                + csvField(user.getRoles());
+    }
+
+    /**
+     * Este método escapa un campo CSV. Los valores que empiezan por =, +, -, @, tabulador o retorno de carro se
+     * prefijan con una comilla simple para que las hojas de cálculo no los interpreten como fórmulas, ya que
+     * cualquiera puede registrar un usuario con esos valores a través de /auth/addNewUser.
+     * @param value Es el valor del campo, que puede ser null
+     * @return El campo escapado
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
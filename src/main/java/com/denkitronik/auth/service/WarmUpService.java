@@ -0,0 +1,294 @@
+package com.denkitronik.auth.service;
+
+import com.denkitronik.auth.config.WarmUpProperties;
+import com.denkitronik.auth.entity.AuthRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esta clase calienta la aplicación al arrancar: ejercita la firma y verificación de tokens JWT, BCrypt, el filtro
+ * JwtAuthFilter mediante solicitudes sintéticas, llena el pool de conexiones y precarga los usuarios más activos.
+ * Se ejecuta como ApplicationRunner, es decir, antes de que Spring Boot publique el estado de readiness
+ * ACCEPTING_TRAFFIC, por lo que la instancia no recibe tráfico real con el JIT y los pools en frío.
+ */
+@Slf4j
+@Service
+public class WarmUpService implements ApplicationRunner {
+
+    private static final String WARM_UP_USER = "warmup"; // Usuario ficticio utilizado para firmar tokens de prueba
+
+    @Autowired
+    private WarmUpProperties properties; // Propiedades de configuración del calentamiento
+
+    @Autowired
+    private JwtService jwtService; // Servicio de tokens JWT que se va a calentar
+
+    @Autowired
+    private UserInfoService userInfoService; // Servicio de usuarios utilizado para precargar los usuarios más activos
+
+    @Autowired
+    private PasswordEncoder encoder; // Codificador BCrypt que se va a calentar
+
+    @Autowired
+    private DataSource dataSource; // Pool de conexiones (Hikari) que se va a llenar
+
+    @Autowired
+    private ObjectMapper objectMapper; // Mapper de Jackson utilizado por los controladores
+
+    @Autowired
+    private Environment environment; // Entorno de Spring, se usa para conocer el puerto real del servidor
+
+    private volatile boolean completed = false; // Indica si el calentamiento ya terminó
+
+    private final Map<String, Object> details = Collections.synchronizedMap(new LinkedHashMap<>()); // Resultado de cada fase
+
+    /**
+     * Este método se llama automáticamente al arrancar la aplicación, después de iniciar el servidor web y antes de
+     * marcar la aplicación como lista. Ejecuta cada fase del calentamiento respetando el tiempo máximo configurado.
+     * @param args Son los argumentos con los que se arrancó la aplicación
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            details.put("enabled", false);
+            completed = true;
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        log.info("Iniciando calentamiento de la aplicación (duración máxima {})", properties.getMaxDuration());
+        try {
+            if (properties.isFillConnectionPool()) {
+                runPhase("connectionPool", () -> fillConnectionPool(deadline));
+            }
+            runPhase("preloadedUsers", () -> preloadUsers(deadline));
+            runPhase("jwtIterations", () -> warmUpJwt(deadline));
+            runPhase("bcryptIterations", () -> warmUpBcrypt(deadline));
+            runPhase("httpIterations", () -> warmUpFilter(deadline));
+        } finally {
+            details.put("durationMs", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            completed = true;
+            log.info("Calentamiento de la aplicación terminado: {}", details);
+        }
+    }
+
+    /**
+     * Este método indica si el calentamiento ya terminó (o está desactivado).
+     * @return true si el calentamiento terminó, false si todavía se está ejecutando
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Este método devuelve una copia del resultado de cada fase del calentamiento, para publicarlo en Actuator.
+     * @return Un mapa con el número de iteraciones de cada fase, los errores y la duración total
+     */
+    public Map<String, Object> getDetails() {
+        synchronized (details) {
+            return new LinkedHashMap<>(details);
+        }
+    }
+
+    /**
+     * Este método ejecuta una fase del calentamiento y guarda su resultado. Si la fase falla, el error se registra y
+     * el calentamiento continúa, ya que el calentamiento nunca debe impedir que la aplicación arranque.
+     * @param name Es el nombre de la fase, que se utiliza como clave en los detalles
+     * @param phase Es la fase a ejecutar, que devuelve el número de iteraciones realizadas
+     */
+    private void runPhase(String name, Phase phase) {
+        try {
+            details.put(name, phase.run());
+        } catch (Exception e) {
+            log.warn("Falló la fase de calentamiento {}", name, e);
+            details.put(name + "Error", e.getMessage());
+        }
+    }
+
+    /**
+     * Este método espera a que Hikari llene el pool hasta su minimumIdle (que por defecto es igual a
+     * maximumPoolSize), para que las primeras solicitudes no tengan que esperar a que se establezcan conexiones con
+     * la base de datos. Hikari crea las conexiones en segundo plano, así que solo se consulta el número de conexiones
+     * abiertas hasta alcanzar el objetivo o hasta el fin del calentamiento.
+     * @param deadline Es el instante (en nanosegundos) en el que el calentamiento debe terminar
+     * @return El número de conexiones abiertas en el pool
+     * @throws Exception Si no se puede acceder al pool de Hikari
+     */
+    private int fillConnectionPool(long deadline) throws Exception {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return 0;
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return 0; // El pool todavía no se ha iniciado
+        }
+        while (pool.getTotalConnections() < hikari.getMinimumIdle() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return pool.getTotalConnections();
+    }
+
+    /**
+     * Este método precarga los usuarios listados en el snapshot configurado, cargándolos a través de
+     * UserInfoService para calentar las consultas JPA y la conversión a UserDetails.
+     * @param deadline Es el instante (en nanosegundos) en el que el calentamiento debe terminar
+     * @return El número de usuarios precargados
+     * @throws Exception Si no se puede leer el snapshot
+     */
+    private int preloadUsers(long deadline) throws Exception {
+        List<String> preloaded = new ArrayList<>();
+        if (properties.getUserSnapshot() == null || !properties.getUserSnapshot().exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(properties.getUserSnapshot().getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && preloaded.size() < properties.getPreloadLimit()
+                    && System.nanoTime() < deadline) {
+                String username = line.trim();
+                if (username.isEmpty() || username.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    userInfoService.loadUserByUsername(username);
+                    preloaded.add(username);
+                } catch (UsernameNotFoundException e) {
+                    log.debug("El usuario {} del snapshot ya no existe", username);
+                }
+            }
+        }
+        return preloaded.size();
+    }
+
+    /**
+     * Este método firma y verifica tokens JWT repetidamente para que el JIT compile las rutas de jjwt y Jackson.
+     * @param deadline Es el instante (en nanosegundos) en el que el calentamiento debe terminar
+     * @return El número de tokens firmados y verificados
+     */
+    private int warmUpJwt(long deadline) {
+        UserDetails userDetails = User.withUsername(WARM_UP_USER).password("").authorities("ROLE_USER").build();
+        int i = 0;
+        for (; i < properties.getJwtIterations() && System.nanoTime() < deadline; i++) {
+            String token = jwtService.generateToken(WARM_UP_USER);
+            if (!jwtService.validateToken(token, userDetails)) {
+                throw new IllegalStateException("El token de calentamiento no es válido");
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Este método codifica y verifica contraseñas con BCrypt repetidamente.
+     * @param deadline Es el instante (en nanosegundos) en el que el calentamiento debe terminar
+     * @return El número de contraseñas codificadas y verificadas
+     */
+    private int warmUpBcrypt(long deadline) {
+        int i = 0;
+        for (; i < properties.getBcryptIterations() && System.nanoTime() < deadline; i++) {
+            String password = WARM_UP_USER + i;
+            encoder.matches(password, encoder.encode(password));
+        }
+        return i;
+    }
+
+    /**
+     * Este método envía solicitudes sintéticas al propio servidor para que atraviesen la cadena de filtros de
+     * seguridad y JwtAuthFilter. Si se configuró un usuario de calentamiento (auth.warmup.user) y existe, también se
+     * envían solicitudes con un token válido para ese usuario, de modo que se ejercite la ruta completa: extracción
+     * del usuario, carga de sus detalles, validación del token, contexto de seguridad y @PreAuthorize. Si no existe,
+     * solo se calienta la ruta sin autenticación. Este método nunca crea ni modifica usuarios.
+     * @param deadline Es el instante (en nanosegundos) en el que el calentamiento debe terminar
+     * @return El número de iteraciones realizadas
+     * @throws Exception Si falla alguna solicitud
+     */
+    private int warmUpFilter(long deadline) throws Exception {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return 0; // No hay servidor web (por ejemplo, en las pruebas)
+        }
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/welcome")).build());
+        UserDetails userDetails = findWarmUpUser();
+        if (userDetails != null) {
+            String authorization = "Bearer " + jwtService.generateToken(userDetails.getUsername());
+            boolean admin = userDetails.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+            boolean user = userDetails.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER"));
+            if (user || !admin) {
+                requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/user/userProfile"))
+                        .header("Authorization", authorization).build());
+            }
+            if (admin) {
+                requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/admin/adminProfile"))
+                        .header("Authorization", authorization).build());
+            }
+        }
+        details.put("httpAuthenticated", userDetails != null);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        String json = objectMapper.writeValueAsString(new AuthRequest(WARM_UP_USER, WARM_UP_USER));
+        int errors = 0;
+        int i = 0;
+        for (; i < properties.getHttpIterations() && System.nanoTime() < deadline; i++) {
+            objectMapper.readValue(json, AuthRequest.class);
+            for (HttpRequest request : requests) {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                    errors++;
+                }
+            }
+        }
+        details.put("httpErrors", errors);
+        return i;
+    }
+
+    /**
+     * Este método carga el usuario de calentamiento configurado en auth.warmup.user.
+     * @return Los detalles del usuario, o null si no se configuró o no existe en la base de datos
+     */
+    private UserDetails findWarmUpUser() {
+        String username = properties.getUser();
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        try {
+            return userInfoService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            log.warn("El usuario de calentamiento {} no existe; solo se calienta la ruta sin autenticación", username);
+            return null;
+        }
+    }
+
+    /**
+     * Representa una fase del calentamiento que devuelve el número de iteraciones realizadas.
+     */
+    @FunctionalInterface
+    private interface Phase {
+        int run() throws Exception;
+    }
+}
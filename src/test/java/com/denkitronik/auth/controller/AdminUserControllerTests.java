@@ -0,0 +1,171 @@
+package com.denkitronik.auth.controller;
+
+import com.denkitronik.auth.entity.UserInfo;
+import com.denkitronik.auth.entity.UserPage;
+import com.denkitronik.auth.entity.UserSummary;
+import com.denkitronik.auth.repository.UserInfoRepository;
+import com.denkitronik.auth.service.JwtService;
+import com.denkitronik.auth.service.UserInfoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de los puntos de acceso de administración de usuarios: paginación por clave en ambos órdenes, errores de
+ * parámetros, escapado de la exportación NDJSON/CSV y autorización. Usan H2 en lugar de PostgreSQL (perfil "test").
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminUserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserInfoService userInfoService;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String adminToken;
+    private String userToken;
+
+    @BeforeAll
+    void createUsers() {
+        userInfoService.addUser(new UserInfo(0, "admin", "admin@example.com", "password", "ROLE_ADMIN"));
+        userInfoService.addUser(new UserInfo(0, "user", "user@example.com", "password", "ROLE_USER"));
+        userInfoService.addUser(new UserInfo(0, "formula", "=HYPERLINK(1)", "password", "ROLE_USER,ROLE_ADMIN"));
+        userInfoService.addUser(new UserInfo(0, "quote\"name", "-1+1", "password", "ROLE_USER"));
+        userInfoService.addUser(new UserInfo(0, null, "@unnamed", "password", "ROLE_USER"));
+        userInfoService.addUser(new UserInfo(0, null, "unnamed2@example.com", "password", "ROLE_USER"));
+        for (int i = 0; i < 5; i++) {
+            userInfoService.addUser(new UserInfo(0, "user-" + i, "user" + i + "@example.com", "password", "ROLE_USER"));
+        }
+        adminToken = jwtService.generateToken("admin");
+        userToken = jwtService.generateToken("user");
+    }
+
+    @Test
+    void pagingReturnsEveryUserExactlyOnceSortedById() throws Exception {
+        assertEveryUserExactlyOnce("id");
+    }
+
+    @Test
+    void pagingReturnsEveryUserExactlyOnceSortedByName() throws Exception {
+        assertEveryUserExactlyOnce("name");
+    }
+
+    @Test
+    void invalidParametersReturnFixedMessage() throws Exception {
+        mockMvc.perform(admin(get("/auth/admin/users").param("sort", "<script>")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string("Invalid sort field"));
+        mockMvc.perform(admin(get("/auth/admin/users").param("sort", "id").param("after", "abc")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor"));
+        mockMvc.perform(admin(get("/auth/admin/users").param("sort", "name").param("after", "abc")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor"));
+        mockMvc.perform(admin(get("/auth/admin/users/export").param("format", "<xml>")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid export format"));
+    }
+
+    @Test
+    void ndjsonExportWritesEveryUserWithoutPassword() throws Exception {
+        String body = mockMvc.perform(admin(get("/auth/admin/users/export").param("format", "ndjson")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertEquals(repository.count(), lines.length);
+        List<String> names = new ArrayList<>();
+        for (String line : lines) {
+            assertTrue(!line.contains("password"), line);
+            names.add(objectMapper.readValue(line, UserSummary.class).getName());
+        }
+        assertTrue(names.contains("quote\"name"));
+    }
+
+    @Test
+    void csvExportEscapesSeparatorsQuotesAndFormulas() throws Exception {
+        String body = mockMvc.perform(admin(get("/auth/admin/users/export").param("format", "csv")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = List.of(body.split("\n"));
+        assertEquals("id,name,email,roles", lines.get(0));
+        assertEquals(repository.count() + 1, lines.size());
+        int formula = repository.findByName("formula").orElseThrow().getId();
+        int quote = repository.findByName("quote\"name").orElseThrow().getId();
+        assertTrue(lines.contains(formula + ",formula,'=HYPERLINK(1),\"ROLE_USER,ROLE_ADMIN\""), body);
+        assertTrue(lines.contains(quote + ",\"quote\"\"name\",'-1+1,ROLE_USER"), body);
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith(",,'@unnamed,ROLE_USER")), body);
+    }
+
+    @Test
+    void userRoleIsForbidden() throws Exception {
+        mockMvc.perform(get("/auth/admin/users").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/auth/admin/users/export").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Recorre todas las páginas de tamaño 2 siguiendo "next" y comprueba que cada usuario aparece exactamente una vez.
+     */
+    private void assertEveryUserExactlyOnce(String sort) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String after = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/auth/admin/users").param("sort", sort).param("size", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            String body = mockMvc.perform(admin(request))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            UserPage page = objectMapper.readValue(body, UserPage.class);
+            page.getUsers().forEach(user -> ids.add(user.getId()));
+            after = page.getNext();
+        } while (after != null);
+
+        Set<Integer> expected = new HashSet<>();
+        repository.findAll().forEach(user -> expected.add(user.getId()));
+        assertEquals(expected.size(), ids.size(), "usuarios repetidos u omitidos: " + ids);
+        assertEquals(expected, new HashSet<>(ids));
+    }
+
+    private MockHttpServletRequestBuilder admin(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + adminToken);
+    }
+
+}
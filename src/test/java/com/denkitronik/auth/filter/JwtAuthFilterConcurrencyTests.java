@@ -0,0 +1,326 @@
+package com.denkitronik.auth.filter;
+
+import com.denkitronik.auth.entity.UserInfo;
+import com.denkitronik.auth.repository.UserInfoRepository;
+import com.denkitronik.auth.service.JwtService;
+import com.denkitronik.auth.service.UserInfoService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de concurrencia de JwtAuthFilter y UserController. Muchos hilos envían a la vez solicitudes con tokens
+ * válidos, expirados, manipulados y de usuarios sin permisos contra el servidor real (Tomcat en un puerto aleatorio, con H2
+ * en lugar de PostgreSQL) y se comprueba que ninguna solicitud ve el usuario autenticado de otra, es decir, que el
+ * contexto de seguridad (que vive en un ThreadLocal) no se filtra entre solicitudes atendidas por el mismo hilo.
+ * Durante la prueba se graba un registro JFR con la contención de locks y se informa el throughput obtenido.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JwtAuthFilterConcurrencyTests {
+
+    private static final int USERS = 8; // Número de usuarios distintos que participan en la prueba
+    private static final int THREADS = 32; // Número de hilos cliente que envían solicitudes a la vez
+    private static final int REQUESTS_PER_THREAD = 250; // Número de solicitudes que envía cada hilo
+    private static final Path JFR_FILE = Path.of("target", "jwt-auth-filter-concurrency.jfr");
+    private static final Pattern WORKER_THREAD = Pattern.compile("http-nio-.+-exec-\\d+"); // Hilos de Tomcat (con puerto aleatorio: http-nio-auto-1-exec-N)
+
+    // Tipos de solicitud que se mezclan durante la prueba.
+    private enum Scenario { OWN_TOKEN, USER_TOKEN_ON_ADMIN, EXPIRED_TOKEN, TAMPERED_TOKEN, NO_TOKEN, USER_PROFILE, ADMIN_PROFILE }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserInfoService userInfoService;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> roles = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Integer> userOnly = new ArrayList<>(); // Índices de los usuarios que solo tienen ROLE_USER
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Controlador que solo existe en las pruebas y devuelve el nombre del usuario autenticado en el contexto de
+     * seguridad del hilo que atiende la solicitud.
+     */
+    @RestController
+    static class WhoAmIController {
+
+        @GetMapping("/auth/user/whoami")
+        public String whoAmI() {
+            return SecurityContextHolder.getContext().getAuthentication().getName();
+        }
+    }
+
+    @TestConfiguration
+    static class WhoAmIConfiguration {
+
+        @Bean
+        WhoAmIController whoAmIController() {
+            return new WhoAmIController();
+        }
+    }
+
+    @BeforeAll
+    void createUsers() {
+        for (int i = 0; i < USERS; i++) {
+            String name = "stress-user-" + i;
+            String role = switch (i % 3) {
+                case 0 -> "ROLE_USER";
+                case 1 -> "ROLE_ADMIN";
+                default -> "ROLE_USER,ROLE_ADMIN";
+            };
+            if (repository.findByName(name).isEmpty()) {
+                userInfoService.addUser(new UserInfo(0, name, name + "@example.com", "password-" + i, role));
+            }
+            names.add(name);
+            roles.add(role);
+            tokens.add(jwtService.generateToken(name));
+            if (role.equals("ROLE_USER")) {
+                userOnly.add(i);
+            }
+        }
+    }
+
+    @Test
+    void concurrentRequestsNeverSeeAnotherRequestsPrincipal() throws Exception {
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Files.createDirectories(JFR_FILE.getParent());
+        long elapsed;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.enable("jdk.ThreadPark").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.start();
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int r = 0; r < REQUESTS_PER_THREAD; r++) {
+                            sendAndVerify(failures);
+                            completed.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                elapsed = System.nanoTime() - begin;
+            } finally {
+                executor.shutdownNow();
+                recording.stop();
+            }
+            recording.dump(JFR_FILE);
+        }
+
+        double seconds = elapsed / 1_000_000_000.0;
+        log.info("JwtAuthFilter: {} solicitudes con {} hilos en {} s ({} solicitudes/s)", completed.get(), THREADS,
+                String.format("%.2f", seconds), String.format("%.0f", completed.get() / seconds));
+        reportContention();
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " solicitudes incorrectas, por ejemplo: "
+                + failures.stream().limit(10).toList());
+        assertEquals(THREADS * REQUESTS_PER_THREAD, completed.get());
+    }
+
+    /**
+     * Envía una solicitud de un escenario elegido al azar y comprueba que el código de estado y la respuesta
+     * corresponden exactamente al token enviado. Cualquier diferencia se añade a la lista de fallos.
+     */
+    private void sendAndVerify(Queue<String> failures) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Scenario scenario = Scenario.values()[random.nextInt(Scenario.values().length)];
+        int user = random.nextInt(USERS);
+        int other = (user + 1 + random.nextInt(USERS - 1)) % USERS;
+        String path = "/auth/user/whoami";
+        String token;
+        int expectedStatus = 200;
+        String expectedBody = null; // Solo se comprueba cuando se espera un 200
+        switch (scenario) {
+            case OWN_TOKEN -> {
+                token = tokens.get(user);
+                expectedBody = names.get(user);
+            }
+            // Un usuario que solo tiene ROLE_USER intenta entrar al área de administración mientras otros hilos envían
+            // tokens de administradores: si el contexto de seguridad de otra solicitud se filtrara, obtendría un 200.
+            case USER_TOKEN_ON_ADMIN -> {
+                path = "/auth/admin/adminProfile";
+                user = userOnly.get(random.nextInt(userOnly.size()));
+                token = tokens.get(user);
+                expectedStatus = 403;
+            }
+            // JwtAuthFilter responde 401 cuando jjwt rechaza el token (expirado o con la firma manipulada).
+            case EXPIRED_TOKEN -> {
+                token = expiredToken(names.get(user));
+                expectedStatus = 401;
+            }
+            case TAMPERED_TOKEN -> {
+                token = tamperedToken(tokens.get(user), tokens.get(other));
+                expectedStatus = 401;
+            }
+            // Sin token no hay autenticación y la configuración usa Http403ForbiddenEntryPoint. Si el contexto de
+            // seguridad de una solicitud anterior se filtrara al hilo, esta solicitud devolvería 200 con un nombre.
+            case NO_TOKEN -> {
+                token = null;
+                expectedStatus = 403;
+            }
+            case USER_PROFILE -> {
+                path = "/auth/user/userProfile";
+                token = tokens.get(user);
+                boolean allowed = roles.get(user).contains("ROLE_USER");
+                expectedStatus = allowed ? 200 : 403;
+                expectedBody = allowed ? "Welcome to User Profile" : null;
+            }
+            default -> {
+                path = "/auth/admin/adminProfile";
+                token = tokens.get(user);
+                boolean allowed = roles.get(user).contains("ROLE_ADMIN");
+                expectedStatus = allowed ? 200 : 403;
+                expectedBody = allowed ? "Welcome to Admin Profile" : null;
+            }
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != expectedStatus
+                || (expectedBody != null && !expectedBody.equals(response.body()))
+                || (expectedBody == null && names.stream().anyMatch(response.body()::contains))) {
+            failures.add(scenario + " de " + names.get(user) + " esperaba " + expectedStatus + " "
+                    + (expectedBody == null ? "" : expectedBody) + " y recibió " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+
+    /**
+     * Crea un token firmado correctamente pero que expiró hace una hora.
+     */
+    private static String expiredToken(String userName) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(userName)
+                .setIssuedAt(new Date(now - 1000 * 60 * 120))
+                .setExpiration(new Date(now - 1000 * 60 * 60))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Crea un token manipulado: el contenido (el usuario) se toma de otro token, pero se conserva la firma original,
+     * de modo que la firma ya no corresponde al contenido.
+     */
+    private static String tamperedToken(String signedToken, String otherToken) {
+        String[] signed = signedToken.split("\\.");
+        String[] other = otherToken.split("\\.");
+        return signed[0] + "." + other[1] + "." + signed[2];
+    }
+
+    /**
+     * Resume la grabación JFR: cuántas veces y durante cuánto tiempo se bloquearon los hilos de Tomcat que atienden
+     * las solicitudes esperando un monitor (synchronized) o aparcados (locks de java.util.concurrent, por ejemplo el
+     * pool de conexiones), agrupado por la clase del lock. Se descartan los hilos cliente de la prueba y las esperas
+     * de los hilos de Tomcat inactivos en su cola de tareas, que no son contención.
+     */
+    private static void reportContention() throws Exception {
+        Map<String, long[]> contention = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(JFR_FILE)) {
+            RecordedThread thread = event.getThread();
+            if (thread == null || thread.getJavaName() == null || !WORKER_THREAD.matcher(thread.getJavaName()).matches()
+                    || isIdleWorker(event)) {
+                continue;
+            }
+            String field = event.getEventType().getName().equals("jdk.JavaMonitorEnter") ? "monitorClass" : "parkedClass";
+            RecordedClass lockClass = event.hasField(field) ? event.getValue(field) : null;
+            String key = event.getEventType().getName() + " " + (lockClass == null ? "?" : lockClass.getName());
+            long[] totals = contention.computeIfAbsent(key, k -> new long[2]);
+            totals[0]++;
+            totals[1] += event.getDuration().toMillis();
+        }
+        log.info("Contención de los hilos de Tomcat registrada en {}:", JFR_FILE.toAbsolutePath());
+        contention.forEach((key, totals) -> log.info("  {}: {} eventos, {} ms", key, totals[0], totals[1]));
+    }
+
+    /**
+     * Indica si el evento corresponde a un hilo de Tomcat esperando nuevas solicitudes en su cola de tareas.
+     */
+    private static boolean isIdleWorker(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod() != null
+                    && frame.getMethod().getType().getName().equals("org.apache.tomcat.util.threads.TaskQueue")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}